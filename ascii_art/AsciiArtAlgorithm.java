@@ -1,15 +1,12 @@
 package ascii_art;
 
+import image.ColorGrid;
 import image.Image;
 import image.ImagePadding;
 import image.ImageSplitter;
 import image_char_matching.SubImgCharMatcher;
 
-import java.awt.Color;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -21,7 +18,6 @@ public class AsciiArtAlgorithm {
     private final Image image;
     private final int resolution;
     private final SubImgCharMatcher charMatcher;
-    private final Map<Color[][], Double> brightnessCache = new HashMap<>();
 
     /**
      * Constructs an AsciiArtAlgorithm with the given image path, resolution, and character set.
@@ -32,14 +28,26 @@ public class AsciiArtAlgorithm {
      * @throws IOException if there is an error loading the image
      */
     public AsciiArtAlgorithm(String imagePath, int resolution, Set<Character> charset) throws IOException {
-        this.image = new Image(imagePath);
+        this(new Image(imagePath), resolution, charset);
+    }
+
+    /**
+     * Constructs an AsciiArtAlgorithm for an already loaded image, with the given resolution
+     * and character set.
+     *
+     * @param image the image to convert
+     * @param resolution the number of characters per row in the resulting ASCII art
+     * @param charset the character set to use for the ASCII art
+     */
+    public AsciiArtAlgorithm(Image image, int resolution, Set<Character> charset) {
+        this.image = image;
         this.resolution = resolution;
         this.charMatcher = new SubImgCharMatcher(charset);
     }
 
     /**
      * Runs the ASCII art generation algorithm.
-     * Pads the image, splits it into sub-images, calculates the brightness of each sub-image,
+     * Pads the image, divides it into sub-images, calculates the brightness of each sub-image,
      * and maps each sub-image to the best matching character from the character set.
      *
      * @return a 2D array of characters representing the ASCII art
@@ -48,38 +56,55 @@ public class AsciiArtAlgorithm {
         // Step 1: Padding the image
         Image paddedImage = ImagePadding.padImage(image);
 
-        // Step 2: Dividing the image into sub-images
+        // Step 2: Calculating the brightness of each sub-image, without copying its pixels
         int subImageSize = paddedImage.getWidth() / resolution;
-        List<Color[][]> subImages = ImageSplitter.splitImage(paddedImage, subImageSize);
+        double[][] brightnessGrid = ImageSplitter.calculateBrightnessGrid(paddedImage, subImageSize);
 
         // Step 3: Convert sub-images to characters
-        char[][] asciiArt = new char[paddedImage.getHeight() /
-                subImageSize][paddedImage.getWidth() / subImageSize];
-        int index = 0;
+        return matchChars(brightnessGrid, charMatcher);
+    }
+
+    /**
+     * Runs the ASCII art generation algorithm, keeping the mean color of every sub-image.
+     * The brightness and the color of each sub-image are calculated in the same pass, so the
+     * characters are the same as those returned by {@link #run()}.
+     *
+     * @return the ASCII art together with the mean RGB value of each of its characters
+     */
+    public ColoredAsciiArt runColored() {
+        Image paddedImage = ImagePadding.padImage(image);
+        int subImageSize = paddedImage.getWidth() / resolution;
+        ColorGrid colorGrid = ImageSplitter.calculateColorGrid(paddedImage, subImageSize);
+        return new ColoredAsciiArt(matchChars(colorGrid.getBrightness(), charMatcher), colorGrid.getColors());
+    }
+
+    /**
+     * Maps every cell of a brightness grid to the best matching character.
+     *
+     * @param brightnessGrid the brightness of the sub-images
+     * @param charMatcher the character matcher to use
+     * @return a 2D array of characters representing the ASCII art
+     */
+    static char[][] matchChars(double[][] brightnessGrid, SubImgCharMatcher charMatcher) {
+        char[][] asciiArt = new char[brightnessGrid.length][];
         for (int y = 0; y < asciiArt.length; y++) {
-            for (int x = 0; x < asciiArt[y].length; x++) {
-                Color[][] subImage = subImages.get(index++);
-                double brightness = getBrightness(subImage);
-                asciiArt[y][x] = charMatcher.getCharByImageBrightness(brightness);
-            }
+            asciiArt[y] = matchRow(brightnessGrid[y], charMatcher);
         }
         return asciiArt;
     }
 
     /**
-     * Gets the brightness of a given sub-image.
-     * Uses a cache to avoid recalculating brightness for sub-images that have already been processed.
+     * Maps a single row of a brightness grid to the best matching characters.
      *
-     * @param subImage the sub-image to calculate the brightness for
-     * @return the brightness value of the sub-image
+     * @param brightnessRow the brightness of a row of sub-images
+     * @param charMatcher the character matcher to use
+     * @return the characters of the row
      */
-    private double getBrightness(Color[][] subImage) {
-        if (brightnessCache.containsKey(subImage)) {
-            return brightnessCache.get(subImage);
-        } else {
-            double brightness = ImageSplitter.calculateBrightness(subImage);
-            brightnessCache.put(subImage, brightness);
-            return brightness;
+    static char[] matchRow(double[] brightnessRow, SubImgCharMatcher charMatcher) {
+        char[] row = new char[brightnessRow.length];
+        for (int x = 0; x < row.length; x++) {
+            row[x] = charMatcher.getCharByImageBrightness(brightnessRow[x]);
         }
+        return row;
     }
 }
@@ -0,0 +1,291 @@
+package ascii_art;
+
+import image.Image;
+import image.ImagePadding;
+import image.ImageSplitter;
+import image_char_matching.SubImgCharMatcher;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The AsciiArtPrefetcher class speculatively generates ASCII art for the resolutions the user is
+ * likely to ask for next, one at a time on a single low-priority background thread.
+ * The image is padded and the character matcher is built once per image and character set, and
+ * every resolution is generated from a brightness grid without copying sub-images. The memory
+ * bound covers the padded image as well as each job's brightness and resulting ASCII art.
+ * A dropped job stops at the next row of sub-images, and its memory stays reserved until it has
+ * actually stopped. Results are only handed out for the exact image, resolution and character
+ * set they were generated for.
+ */
+class AsciiArtPrefetcher {
+    private static final int PADDED_PIXEL_BYTES = Integer.BYTES;
+    private static final int CELL_BYTES = Double.BYTES + Character.BYTES;
+
+    private final long maxWorkingBytes;
+    private final ExecutorService executor;
+    private final AtomicLong reservedBytes = new AtomicLong();
+    private final Map<Integer, Prefetch> results = new HashMap<>();
+    private Generation generation;
+
+    /**
+     * Constructs an AsciiArtPrefetcher.
+     *
+     * @param maxWorkingBytes the maximal memory held by the padded image, the brightness values
+     *                        and the prefetched ASCII art together
+     */
+    AsciiArtPrefetcher(long maxWorkingBytes) {
+        this.maxWorkingBytes = maxWorkingBytes;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ascii-art-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts generating the ASCII art of the given resolutions in the background.
+     * Results of a different image or character set are dropped, as are results of resolutions
+     * that are no longer requested. Resolutions that would exceed the memory bound are skipped.
+     *
+     * @param image the image to generate the ASCII art from
+     * @param charset the character set to use for the ASCII art
+     * @param resolutions the resolutions to generate
+     */
+    void prefetch(Image image, Set<Character> charset, Set<Integer> resolutions) {
+        if (generation == null || image != generation.image || !charset.equals(generation.charset)) {
+            invalidate();
+            generation = new Generation(image, charset);
+        }
+        Iterator<Map.Entry<Integer, Prefetch>> iterator = results.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Integer, Prefetch> entry = iterator.next();
+            if (!resolutions.contains(entry.getKey())) {
+                entry.getValue().drop();
+                iterator.remove();
+            }
+        }
+        for (int resolution : resolutions) {
+            long bytes = estimateJobBytes(resolution);
+            if (!results.containsKey(resolution) && reservedBytes.get() + bytes <= maxWorkingBytes) {
+                Prefetch prefetch = new Prefetch(generation, resolution, bytes);
+                results.put(resolution, prefetch);
+                executor.execute(prefetch.future);
+            }
+        }
+    }
+
+    /**
+     * Takes the prefetched ASCII art for the given image, resolution and character set.
+     * Waits for it only if it is already being generated; a job still queued behind another
+     * resolution is dropped instead, as converting directly is faster than waiting for both.
+     *
+     * @param image the image of the requested ASCII art
+     * @param resolution the resolution of the requested ASCII art
+     * @param charset the character set of the requested ASCII art
+     * @return the ASCII art, or null if it was not prefetched or had not started yet
+     */
+    char[][] take(Image image, int resolution, Set<Character> charset) {
+        if (generation == null || image != generation.image || !charset.equals(generation.charset)) {
+            return null;
+        }
+        Prefetch prefetch = results.remove(resolution);
+        if (prefetch == null) {
+            return null;
+        }
+        if (!prefetch.started) {
+            prefetch.drop();
+            return null;
+        }
+        try {
+            return prefetch.future.get();
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            // The result now belongs to the caller.
+            prefetch.reservation.release();
+        }
+    }
+
+    /**
+     * Drops all prefetched results, stopping the ones not generated yet.
+     */
+    void invalidate() {
+        for (Prefetch prefetch : results.values()) {
+            prefetch.drop();
+        }
+        results.clear();
+        if (generation != null) {
+            generation.reservation.release();
+            generation = null;
+        }
+    }
+
+    /**
+     * Estimates the memory one job needs for its brightness grid and its ASCII art.
+     */
+    private long estimateJobBytes(int resolution) {
+        long subImageSize = Math.max(1, generation.paddedWidth / resolution);
+        long cells = (generation.paddedHeight / subImageSize) * (generation.paddedWidth / subImageSize);
+        return cells * CELL_BYTES;
+    }
+
+    /**
+     * The state shared by all the jobs of a single image and character set.
+     * The padded image and the character matcher are created lazily by the first job, and are
+     * only accessed from the single prefetch thread afterwards.
+     */
+    private class Generation {
+        private final Image image;
+        private final Set<Character> charset;
+        private final long paddedWidth;
+        private final long paddedHeight;
+        private final Reservation reservation;
+        private Image paddedImage;
+        private SubImgCharMatcher charMatcher;
+
+        private Generation(Image image, Set<Character> charset) {
+            this.image = image;
+            this.charset = new HashSet<>(charset);
+            this.paddedWidth = nextPowerOfTwo(image.getWidth());
+            this.paddedHeight = nextPowerOfTwo(image.getHeight());
+            this.reservation = new Reservation(paddedWidth * paddedHeight * PADDED_PIXEL_BYTES);
+        }
+
+        /**
+         * Pads the image and builds the character matcher, unless an earlier job already did.
+         */
+        private void prepare() {
+            if (paddedImage == null) {
+                paddedImage = ImagePadding.padImage(image);
+                charMatcher = new SubImgCharMatcher(charset);
+            }
+        }
+
+        private static long nextPowerOfTwo(int n) {
+            return n <= 1 ? 1 : Integer.highestOneBit(n - 1) * 2L;
+        }
+    }
+
+    /**
+     * A prefetch job of a single resolution, along with whether it has started running and
+     * whether it was dropped.
+     */
+    private class Prefetch {
+        private final Generation generation;
+        private final int resolution;
+        private final Reservation reservation;
+        private final FutureTask<char[][]> future;
+        private volatile boolean started;
+        private volatile boolean dropped;
+
+        private Prefetch(Generation generation, int resolution, long bytes) {
+            this.generation = generation;
+            this.resolution = resolution;
+            this.reservation = new Reservation(bytes);
+            this.future = new FutureTask<>(this::run);
+        }
+
+        private char[][] run() {
+            started = true;
+            // The reservations are already released if the job was dropped before it started.
+            if (!reservation.acquire()) {
+                return null;
+            }
+            try {
+                if (!generation.reservation.acquire()) {
+                    return null;
+                }
+                try {
+                    return generate();
+                } finally {
+                    generation.reservation.release();
+                }
+            } finally {
+                reservation.release();
+            }
+        }
+
+        /**
+         * Generates the ASCII art, checking between rows of sub-images whether the job was
+         * dropped. A flag is used rather than interrupts, as building the character matcher
+         * can clear the interrupt status.
+         *
+         * @return the ASCII art, or null if the job was dropped
+         */
+        private char[][] generate() {
+            generation.prepare();
+            Image paddedImage = generation.paddedImage;
+            int subImageSize = paddedImage.getWidth() / resolution;
+            char[][] asciiArt = new char[paddedImage.getHeight() / subImageSize][];
+            for (int row = 0; row < asciiArt.length; row++) {
+                if (dropped) {
+                    return null;
+                }
+                double[] brightnessRow = ImageSplitter.calculateBrightnessRow(paddedImage, subImageSize, row);
+                asciiArt[row] = AsciiArtAlgorithm.matchRow(brightnessRow, generation.charMatcher);
+            }
+            return asciiArt;
+        }
+
+        /**
+         * Drops the job. A running job stops at its next row, and its memory is released once
+         * it is no longer running.
+         */
+        private void drop() {
+            dropped = true;
+            future.cancel(false);
+            reservation.release();
+        }
+    }
+
+    /**
+     * Memory counted against the bound. It is held by the prefetcher and, while a job uses it,
+     * by that job, and is released once neither holds it anymore.
+     */
+    private class Reservation {
+        private final long bytes;
+        private final AtomicInteger holders = new AtomicInteger(1);
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+            reservedBytes.addAndGet(bytes);
+        }
+
+        /**
+         * Adds a holder, unless the reservation was already released.
+         *
+         * @return whether the reservation is now held
+         */
+        private boolean acquire() {
+            int count;
+            do {
+                count = holders.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!holders.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void release() {
+            if (holders.decrementAndGet() == 0) {
+                reservedBytes.addAndGet(-bytes);
+            }
+        }
+    }
+}
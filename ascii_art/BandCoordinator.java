@@ -0,0 +1,345 @@
+package ascii_art;
+
+import ascii_art.exceptions.ShellRunException;
+import ascii_output.ConsoleAsciiOutput;
+import image.Image;
+import image.ImagePadding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The BandCoordinator class generates ASCII art for very large images by splitting the padded
+ * image into bands of sub-image rows and sending each band to a {@link BandWorker} process.
+ * A band whose worker fails or times out is retried on the next worker, and the characters
+ * returned for all bands are reassembled into the complete ASCII art.
+ */
+public class BandCoordinator {
+    private static final char[] DEFAULT_CHARSET = {'1', '2', '3', '4', '5', '6',
+            '7', '8', '9', '0'};
+    private static final int DEFAULT_TIMEOUT_MILLIS = 30000;
+    private static final int BANDS_PER_WORKER = 4;
+    private static final int WORKER_STARTUP_TIMEOUT_MILLIS = 30000;
+    private static final ScheduledExecutorService DEADLINE_TIMER =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "band-deadline-timer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final List<InetSocketAddress> workers;
+    private final int timeoutMillis;
+
+    /**
+     * Constructs a BandCoordinator that distributes bands among the given workers.
+     *
+     * @param workers the addresses of the workers
+     * @param timeoutMillis the time a worker may take to receive, convert and return a band
+     */
+    public BandCoordinator(List<InetSocketAddress> workers, int timeoutMillis) {
+        if (workers.isEmpty()) {
+            throw new IllegalArgumentException("At least one worker is required.");
+        }
+        this.workers = new ArrayList<>(workers);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * The main method to run a BandCoordinator.
+     * Without worker addresses, the given number of workers is started locally as subprocesses.
+     *
+     * @param args the image path, the resolution, and either worker addresses as host:port
+     *             or the number of local workers to start.
+     * @throws ShellRunException if the ASCII art cannot be generated.
+     */
+    public static void main(String[] args) throws ShellRunException {
+        if (args.length < 3) {
+            throw new ShellRunException("Usage: BandCoordinator <image> <resolution> "
+                    + "(<workers> | <host:port>...)");
+        }
+        Set<Character> charset = new HashSet<>();
+        for (char c : DEFAULT_CHARSET) {
+            charset.add(c);
+        }
+        try {
+            Image image = new Image(args[0]);
+            int resolution = Integer.parseInt(args[1]);
+            char[][] asciiArt;
+            if (args[2].contains(":")) {
+                List<InetSocketAddress> addresses = new ArrayList<>();
+                for (int i = 2; i < args.length; i++) {
+                    String[] hostAndPort = args[i].split(":");
+                    addresses.add(new InetSocketAddress(hostAndPort[0], Integer.parseInt(hostAndPort[1])));
+                }
+                asciiArt = new BandCoordinator(addresses, DEFAULT_TIMEOUT_MILLIS)
+                        .run(image, resolution, charset);
+            } else {
+                try (LocalWorkers localWorkers = startLocalWorkers(Integer.parseInt(args[2]))) {
+                    asciiArt = new BandCoordinator(localWorkers.getAddresses(), DEFAULT_TIMEOUT_MILLIS)
+                            .run(image, resolution, charset);
+                }
+            }
+            new ConsoleAsciiOutput().out(asciiArt);
+        } catch (IOException e) {
+            throw new ShellRunException("Failed to generate the ASCII art", e);
+        }
+    }
+
+    /**
+     * Runs the ASCII art generation algorithm on the workers.
+     * Pads the image, splits its sub-image rows into bands, converts every band on a worker,
+     * and places each band's characters at its rows of the resulting ASCII art.
+     *
+     * @param image the image to convert
+     * @param resolution the number of characters per row in the resulting ASCII art
+     * @param charset the character set to use for the ASCII art
+     * @return a 2D array of characters representing the ASCII art
+     * @throws IOException if a band failed on every worker
+     * @throws IllegalArgumentException if the resolution is not between 1 and the padded image width,
+     *                                  or the character set has fewer than two characters
+     */
+    public char[][] run(Image image, int resolution, Set<Character> charset) throws IOException {
+        if (charset.size() < BandWorker.MIN_CHARSET_SIZE) {
+            throw new IllegalArgumentException("The character set must have at least "
+                    + BandWorker.MIN_CHARSET_SIZE + " characters.");
+        }
+        Image paddedImage = ImagePadding.padImage(image);
+        if (resolution <= 0 || resolution > paddedImage.getWidth()) {
+            throw new IllegalArgumentException("Resolution must be between 1 and the padded image width "
+                    + paddedImage.getWidth() + ".");
+        }
+        int subImageSize = paddedImage.getWidth() / resolution;
+        char[][] asciiArt = new char[paddedImage.getHeight() / subImageSize][];
+
+        // Bands are spread over the workers, but never exceed the size a worker accepts.
+        long pixelsPerRow = (long) subImageSize * paddedImage.getWidth();
+        int maxRowsPerBand = (int) Math.min(Integer.MAX_VALUE, BandWorker.MAX_BAND_PIXELS / pixelsPerRow);
+        if (maxRowsPerBand == 0) {
+            throw new IllegalArgumentException("A single row of sub-images exceeds the band size limit.");
+        }
+        int maxBandCount = Math.max(1, workers.size() * BANDS_PER_WORKER);
+        int rowsPerBand = Math.max(1, (asciiArt.length + maxBandCount - 1) / maxBandCount);
+        rowsPerBand = Math.min(rowsPerBand, maxRowsPerBand);
+        int bandCount = (asciiArt.length + rowsPerBand - 1) / rowsPerBand;
+        ExecutorService executor = Executors.newFixedThreadPool(workers.size());
+        try {
+            List<Future<char[][]>> bands = new ArrayList<>();
+            for (int band = 0; band < bandCount; band++) {
+                int firstRow = band * rowsPerBand;
+                int rowCount = Math.min(rowsPerBand, asciiArt.length - firstRow);
+                int firstWorker = band % workers.size();
+                bands.add(executor.submit(() -> convertBand(paddedImage, subImageSize,
+                        firstRow, rowCount, charset, firstWorker)));
+            }
+            for (int band = 0; band < bands.size(); band++) {
+                char[][] rows = bands.get(band).get();
+                System.arraycopy(rows, 0, asciiArt, band * rowsPerBand, rows.length);
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause()
+                    : new IOException("Band conversion failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the workers", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return asciiArt;
+    }
+
+    /**
+     * Converts a band on the workers, starting with the given one and moving on to the next
+     * worker whenever a worker fails or times out, until every worker has been tried once.
+     *
+     * @return the characters of the band
+     * @throws IOException if the band failed on every worker
+     */
+    private char[][] convertBand(Image paddedImage, int subImageSize, int firstRow, int rowCount,
+                                 Set<Character> charset, int firstWorker) throws IOException {
+        IOException lastFailure = null;
+        for (int attempt = 0; attempt < workers.size(); attempt++) {
+            InetSocketAddress worker = workers.get((firstWorker + attempt) % workers.size());
+            try {
+                return requestBand(worker, paddedImage, subImageSize, firstRow, rowCount, charset);
+            } catch (IOException e) {
+                lastFailure = e;
+            }
+        }
+        throw new IOException("Band at row " + firstRow + " failed on every worker", lastFailure);
+    }
+
+    /**
+     * Sends a single band to a worker and reads back its characters.
+     * The whole attempt has a single deadline: when it passes, the socket is closed, which
+     * aborts any pending write or read, even if the worker keeps trickling bytes.
+     *
+     * @return the characters of the band
+     * @throws IOException if the worker cannot be reached, fails, or times out
+     */
+    private char[][] requestBand(InetSocketAddress worker, Image paddedImage, int subImageSize,
+                                 int firstRow, int rowCount, Set<Character> charset) throws IOException {
+        int width = paddedImage.getWidth();
+        int height = rowCount * subImageSize;
+        int firstPixelRow = firstRow * subImageSize;
+        Socket socket = new Socket();
+        ScheduledFuture<?> deadline = DEADLINE_TIMER.schedule(() -> closeQuietly(socket),
+                timeoutMillis, TimeUnit.MILLISECONDS);
+        try (socket) {
+            socket.connect(worker, timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(subImageSize);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(charset.size());
+            for (char c : charset) {
+                out.writeChar(c);
+            }
+            for (int i = 0; i < height; i++) {
+                for (int j = 0; j < width; j++) {
+                    out.writeInt(paddedImage.getRGB(firstPixelRow + i, j));
+                }
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            char[][] rows = new char[rowCount][width / subImageSize];
+            for (char[] row : rows) {
+                for (int x = 0; x < row.length; x++) {
+                    row[x] = in.readChar();
+                }
+            }
+            return rows;
+        } catch (IOException e) {
+            if (deadline.isDone()) {
+                SocketTimeoutException timeout = new SocketTimeoutException("Band at row " + firstRow
+                        + " exceeded its deadline on " + worker);
+                timeout.initCause(e);
+                throw timeout;
+            }
+            throw e;
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // The attempt fails either way.
+        }
+    }
+
+    /**
+     * Starts worker processes on this host, running on the same class path as this JVM.
+     *
+     * @param count the number of workers to start
+     * @return the started workers, to be closed once they are no longer needed
+     * @throws IOException if a worker fails to start
+     */
+    public static LocalWorkers startLocalWorkers(int count) throws IOException {
+        LocalWorkers localWorkers = new LocalWorkers();
+        try {
+            for (int i = 0; i < count; i++) {
+                localWorkers.start();
+            }
+        } catch (IOException e) {
+            localWorkers.close();
+            throw e;
+        }
+        return localWorkers;
+    }
+
+    /**
+     * Worker processes started on this host by {@link #startLocalWorkers(int)}.
+     * They listen on the loopback interface only.
+     * Closing it destroys the processes.
+     */
+    public static class LocalWorkers implements AutoCloseable {
+        private final List<Process> processes = new ArrayList<>();
+        private final List<InetSocketAddress> addresses = new ArrayList<>();
+
+        private LocalWorkers() {
+        }
+
+        private void start() throws IOException {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    BandWorker.class.getName())
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            processes.add(process);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+            // Read the port on a separate thread, so a worker hanging at startup cannot block us.
+            FutureTask<String> readLine = new FutureTask<>(reader::readLine);
+            Thread readerThread = new Thread(readLine, "band-worker-startup");
+            readerThread.setDaemon(true);
+            readerThread.start();
+            String line;
+            try {
+                line = readLine.get(WORKER_STARTUP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                process.destroyForcibly();
+                throw new IOException("Worker did not start within " + WORKER_STARTUP_TIMEOUT_MILLIS + " ms");
+            } catch (ExecutionException e) {
+                throw new IOException("Worker failed to start", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while starting a worker", e);
+            }
+            if (line == null || !line.startsWith(BandWorker.READY_PREFIX)) {
+                throw new IOException("Worker failed to start");
+            }
+            int port = Integer.parseInt(line.substring(BandWorker.READY_PREFIX.length()).trim());
+            addresses.add(new InetSocketAddress("localhost", port));
+        }
+
+        /**
+         * Gets the addresses of the started workers.
+         *
+         * @return the worker addresses
+         */
+        public List<InetSocketAddress> getAddresses() {
+            return addresses;
+        }
+
+        /**
+         * Gets the started worker processes.
+         *
+         * @return the worker processes
+         */
+        public List<Process> getProcesses() {
+            return processes;
+        }
+
+        @Override
+        public void close() {
+            for (Process process : processes) {
+                process.destroy();
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ascii_art;
+
+import image.Image;
+import image.ImageSplitter;
+import image_char_matching.SubImgCharMatcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The BandWorker class is a worker process that converts bands of image rows into ASCII art
+ * for a {@link BandCoordinator}. It listens on a socket, and for every band it receives it
+ * calculates the brightness grid of its packed pixels, matches it with SubImgCharMatcher, and
+ * sends back the band's characters.
+ *
+ * <p>A band request consists of the sub-image size, the band width and height in pixels, the
+ * character set, and the band's packed RGB pixels row by row. The response is the band's
+ * characters, one row of sub-images after the other.
+ *
+ * <p>The protocol is unauthenticated, so workers listen on the loopback interface unless another
+ * address is given explicitly, and requests larger than {@link #MAX_BAND_PIXELS} are rejected.
+ */
+public class BandWorker {
+    /** Printed on the first line of the standard output, followed by the listening port. */
+    static final String READY_PREFIX = "LISTENING ";
+    /** The maximal number of pixels in a single band. */
+    static final long MAX_BAND_PIXELS = 1L << 24;
+    /** The minimal number of characters in a band's character set. */
+    static final int MIN_CHARSET_SIZE = 2;
+    private static final int MAX_CHARSET_SIZE = Character.MAX_VALUE + 1;
+    private static final int BACKLOG = 50;
+
+    private final ServerSocket serverSocket;
+    private final Map<Set<Character>, SubImgCharMatcher> charMatcherCache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a BandWorker listening on the given port of the loopback interface.
+     *
+     * @param port the port to listen on, or 0 to pick any free port
+     * @throws IOException if the socket cannot be opened
+     */
+    public BandWorker(int port) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port);
+    }
+
+    /**
+     * Constructs a BandWorker listening on the given address and port.
+     *
+     * @param bindAddress the address to listen on
+     * @param port the port to listen on, or 0 to pick any free port
+     * @throws IOException if the socket cannot be opened
+     */
+    public BandWorker(InetAddress bindAddress, int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, bindAddress);
+    }
+
+    /**
+     * The main method to run a BandWorker.
+     *
+     * @param args the port to listen on (optional, defaults to any free port), and the address to
+     *             listen on (optional, defaults to the loopback interface).
+     * @throws IOException if the socket cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        InetAddress bindAddress = args.length > 1 ? InetAddress.getByName(args[1])
+                : InetAddress.getLoopbackAddress();
+        BandWorker worker = new BandWorker(bindAddress, port);
+        System.out.println(READY_PREFIX + worker.getPort());
+        System.out.flush();
+        worker.run();
+    }
+
+    /**
+     * Gets the port this worker listens on.
+     *
+     * @return the listening port
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the socket is closed, serving each one on its own thread.
+     *
+     * @throws IOException if accepting a connection fails
+     */
+    public void run() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket = serverSocket.accept();
+            Thread handler = new Thread(() -> serve(socket));
+            handler.setDaemon(true);
+            handler.start();
+        }
+    }
+
+    /**
+     * Serves band requests on a single connection until the coordinator closes it.
+     *
+     * @param socket the connection to the coordinator
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            while (true) {
+                int subImageSize;
+                try {
+                    subImageSize = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                char[][] band = convertBand(in, subImageSize);
+                for (char[] row : band) {
+                    for (char c : row) {
+                        out.writeChar(c);
+                    }
+                }
+                out.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            // The coordinator retries the band elsewhere.
+        }
+    }
+
+    /**
+     * Reads the rest of a band request and converts the band into ASCII art.
+     *
+     * @param in the request stream, positioned right after the sub-image size
+     * @param subImageSize the size of each sub-image
+     * @return the characters of the band
+     * @throws IOException if the request cannot be read or is invalid
+     */
+    private char[][] convertBand(DataInputStream in, int subImageSize) throws IOException {
+        int width = in.readInt();
+        int height = in.readInt();
+        int charsetSize = in.readInt();
+        if (subImageSize <= 0 || width <= 0 || height <= 0
+                || width % subImageSize != 0 || height % subImageSize != 0
+                || (long) width * height > MAX_BAND_PIXELS) {
+            throw new IOException("Invalid band dimensions " + width + "x" + height
+                    + " with sub-image size " + subImageSize);
+        }
+        if (charsetSize < MIN_CHARSET_SIZE || charsetSize > MAX_CHARSET_SIZE) {
+            throw new IOException("Invalid charset size " + charsetSize);
+        }
+        Set<Character> charset = new HashSet<>();
+        for (int i = 0; i < charsetSize; i++) {
+            charset.add(in.readChar());
+        }
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = in.readInt();
+        }
+
+        SubImgCharMatcher charMatcher = charMatcherCache.computeIfAbsent(charset, SubImgCharMatcher::new);
+        double[][] brightnessGrid = ImageSplitter.calculateBrightnessGrid(new Image(pixels, width, height),
+                subImageSize);
+        synchronized (charMatcher) {
+            return AsciiArtAlgorithm.matchChars(brightnessGrid, charMatcher);
+        }
+    }
+}
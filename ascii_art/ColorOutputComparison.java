@@ -0,0 +1,133 @@
+package ascii_art;
+
+import ascii_art.exceptions.ShellRunException;
+import ascii_output.ColorHtmlAsciiOutput;
+import image.Image;
+
+import javax.swing.JEditorPane;
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ColorOutputComparison class compares the colored HTML output against the naive encoding,
+ * which wraps every character in its own span with an inline style.
+ * For each encoding it reports the file size, the number of spans, the time to write the file,
+ * and the time Swing's HTML engine takes to lay it out. The Swing layout time is only a stand-in
+ * for browser render time. Swing lays out inline-styled spans far more slowly than browsers,
+ * so at high resolutions the naive file can take minutes; use --no-layout there.
+ *
+ * <p>Usage: {@code ColorOutputComparison <image> [resolution] [maxColors] [--no-layout]}
+ */
+public class ColorOutputComparison {
+    private static final int DEFAULT_RESOLUTION = 64;
+    private static final int DEFAULT_MAX_COLORS = 64;
+    private static final String NO_LAYOUT_FLAG = "--no-layout";
+    private static final String FONT_NAME = "Courier New";
+    private static final int ASCII_MIN = 32;
+    private static final int ASCII_MAX = 126;
+    private static final int LAYOUT_WIDTH = 4096;
+
+    /**
+     * The main method to run the comparison.
+     *
+     * @param args the image path, optionally followed by the resolution and the median-cut palette
+     *             size; --no-layout anywhere skips the layout measurement.
+     * @throws ShellRunException if the image cannot be loaded or the files cannot be written.
+     */
+    public static void main(String[] args) throws ShellRunException {
+        List<String> positional = new ArrayList<>(Arrays.asList(args));
+        boolean measureLayout = !positional.remove(NO_LAYOUT_FLAG);
+        if (positional.isEmpty()) {
+            throw new ShellRunException("Usage: ColorOutputComparison <image> [resolution] [maxColors] "
+                    + "[" + NO_LAYOUT_FLAG + "]");
+        }
+        int resolution = positional.size() > 1 ? Integer.parseInt(positional.get(1)) : DEFAULT_RESOLUTION;
+        int maxColors = positional.size() > 2 ? Integer.parseInt(positional.get(2)) : DEFAULT_MAX_COLORS;
+        Set<Character> charset = new HashSet<>();
+        for (char c = ASCII_MIN; c <= ASCII_MAX; c++) {
+            charset.add(c);
+        }
+
+        try {
+            ColoredAsciiArt art = new AsciiArtAlgorithm(new Image(positional.get(0)), resolution, charset)
+                    .runColored();
+            char[][] chars = art.getChars();
+            int[][] colors = art.getColors();
+            Path directory = Files.createTempDirectory("ascii_color_comparison");
+            System.out.println("Cells: " + chars.length * (chars.length == 0 ? 0 : chars[0].length)
+                    + ", files in " + directory);
+            System.out.printf("%-22s %12s %10s %10s %12s%n", "encoding", "bytes", "spans", "write ms",
+                    "layout ms");
+
+            Path naive = directory.resolve("naive.html");
+            long start = System.nanoTime();
+            writeNaive(naive, chars, colors);
+            report("naive inline styles", naive, start, measureLayout);
+
+            Path fixed = directory.resolve("fixed256.html");
+            start = System.nanoTime();
+            new ColorHtmlAsciiOutput(fixed.toString(), FONT_NAME).out(chars, colors);
+            report("fixed 256 palette", fixed, start, measureLayout);
+
+            Path medianCut = directory.resolve("median_cut.html");
+            start = System.nanoTime();
+            new ColorHtmlAsciiOutput(medianCut.toString(), FONT_NAME, maxColors).out(chars, colors);
+            report("median-cut " + maxColors, medianCut, start, measureLayout);
+        } catch (IOException e) {
+            throw new ShellRunException("Failed to run the comparison", e);
+        }
+    }
+
+    /**
+     * Writes the naive encoding: one span with an inline color style per character.
+     */
+    private static void writeNaive(Path file, char[][] chars, int[][] colors) throws IOException {
+        try (Writer out = new BufferedWriter(new FileWriter(file.toFile()))) {
+            ColorHtmlAsciiOutput.writeHeader(out, FONT_NAME, "");
+            for (int y = 0; y < chars.length; y++) {
+                for (int x = 0; x < chars[y].length; x++) {
+                    out.write(String.format("<span style=\"color: #%06x;\">", colors[y][x] & 0xFFFFFF));
+                    ColorHtmlAsciiOutput.writeEscaped(out, chars[y][x]);
+                    out.write("</span>");
+                }
+                out.write('\n');
+            }
+            ColorHtmlAsciiOutput.writeFooter(out);
+        }
+    }
+
+    private static void report(String encoding, Path file, long writeStart, boolean measureLayout)
+            throws IOException {
+        double writeMillis = (System.nanoTime() - writeStart) / 1e6;
+        String html = Files.readString(file);
+        int spans = 0;
+        for (int i = html.indexOf("<span"); i >= 0; i = html.indexOf("<span", i + 1)) {
+            spans++;
+        }
+        String layout = measureLayout ? String.format("%.0f", measureLayoutMillis(html)) : "-";
+        System.out.printf("%-22s %12d %10d %10.0f %12s%n", encoding, Files.size(file), spans,
+                writeMillis, layout);
+    }
+
+    /**
+     * Parses the HTML with Swing's HTML engine and lays it out at a fixed width.
+     */
+    private static double measureLayoutMillis(String html) {
+        long start = System.nanoTime();
+        JEditorPane pane = new JEditorPane();
+        pane.setContentType("text/html");
+        pane.setText(html);
+        pane.setSize(LAYOUT_WIDTH, Short.MAX_VALUE);
+        pane.getPreferredSize();
+        return (System.nanoTime() - start) / 1e6;
+    }
+}
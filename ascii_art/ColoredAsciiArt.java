@@ -0,0 +1,39 @@
+package ascii_art;
+
+/**
+ * The ColoredAsciiArt class holds ASCII art together with the mean color of the sub-image
+ * each of its characters was matched to.
+ */
+public class ColoredAsciiArt {
+    private final char[][] chars;
+    private final int[][] colors;
+
+    /**
+     * Constructs a ColoredAsciiArt from characters and their colors.
+     *
+     * @param chars the characters of the ASCII art
+     * @param colors the RGB value of each character, in the same layout as the characters
+     */
+    public ColoredAsciiArt(char[][] chars, int[][] colors) {
+        this.chars = chars;
+        this.colors = colors;
+    }
+
+    /**
+     * Gets the characters of the ASCII art.
+     *
+     * @return a 2D array of characters
+     */
+    public char[][] getChars() {
+        return chars;
+    }
+
+    /**
+     * Gets the colors of the characters.
+     *
+     * @return a 2D array of RGB values
+     */
+    public int[][] getColors() {
+        return colors;
+    }
+}
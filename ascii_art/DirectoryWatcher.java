@@ -0,0 +1,267 @@
+package ascii_art;
+
+import ascii_art.exceptions.ShellRunException;
+import ascii_output.HtmlAsciiOutput;
+import image.Image;
+import image.ImageDiskCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DirectoryWatcher class watches a directory for new or modified images and converts each
+ * of them to an HTML ASCII art file placed next to it.
+ * Events are debounced, images whose content has not changed since their last conversion are
+ * skipped, and conversions run on a bounded worker pool. If the watch service overflows and
+ * loses events, the whole directory is checked again. The content hashes of converted images,
+ * along with the resolution and character set they were converted with, are persisted in an
+ * index file inside the directory, so a restart only converts what changed.
+ */
+public class DirectoryWatcher {
+    private static final int DEFAULT_RESOLUTION = 128;
+    private static final int FALLBACK_RESOLUTION = 2;
+    private static final char[] DEFAULT_CHARSET = {'1', '2', '3', '4', '5', '6',
+            '7', '8', '9', '0'};
+    private static final String INDEX_FILE_NAME = ".ascii_index.properties";
+    private static final char SETTINGS_SEPARATOR = ' ';
+    private static final String OUTPUT_SUFFIX = ".html";
+    private static final String FONT_NAME = "Courier New";
+    private static final String[] IMAGE_EXTENSIONS = {".jpeg", ".jpg", ".png", ".bmp", ".gif"};
+    private static final long DEBOUNCE_MILLIS = 500;
+    private static final int WORKER_QUEUE_CAPACITY = 64;
+
+    private final Path directory;
+    private final Path indexFile;
+    private final int resolution;
+    private final Set<Character> charset;
+    private final String conversionSettings;
+    private final Properties index = new Properties();
+    private final Map<Path, Long> pendingDeadlines = new HashMap<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor workers;
+
+    /**
+     * Constructs a DirectoryWatcher for the given directory and loads its persisted index.
+     *
+     * @param directory the directory to watch
+     * @param resolution the number of characters per row in the resulting ASCII art
+     * @param charset the character set to use for the ASCII art
+     * @param workerCount the maximal number of conversions running at the same time
+     * @throws IOException if the index file exists but cannot be read
+     */
+    public DirectoryWatcher(Path directory, int resolution, Set<Character> charset, int workerCount)
+            throws IOException {
+        this.directory = directory.toAbsolutePath();
+        this.indexFile = this.directory.resolve(INDEX_FILE_NAME);
+        this.resolution = resolution;
+        this.charset = new HashSet<>(charset);
+        StringBuilder settings = new StringBuilder().append(resolution).append(SETTINGS_SEPARATOR);
+        new TreeSet<>(charset).forEach(settings::append);
+        this.conversionSettings = settings.toString();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY));
+        if (Files.exists(indexFile)) {
+            try (InputStream in = Files.newInputStream(indexFile)) {
+                index.load(in);
+            }
+        }
+    }
+
+    /**
+     * The main method to run the DirectoryWatcher.
+     *
+     * @param args the directory to watch, optionally followed by the number of workers.
+     * @throws ShellRunException if the directory cannot be watched.
+     */
+    public static void main(String[] args) throws ShellRunException {
+        if (args.length < 1) {
+            throw new ShellRunException("Usage: DirectoryWatcher <directory> [workers]");
+        }
+        int workerCount = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        Set<Character> charset = new HashSet<>();
+        for (char c : DEFAULT_CHARSET) {
+            charset.add(c);
+        }
+        try {
+            new DirectoryWatcher(Paths.get(args[0]), DEFAULT_RESOLUTION, charset, workerCount).run();
+        } catch (IOException e) {
+            throw new ShellRunException("Failed to watch the directory", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Converts every image already in the directory that changed since its last conversion,
+     * then watches the directory until the thread is interrupted.
+     *
+     * @throws IOException if the directory cannot be watched
+     * @throws InterruptedException if the thread is interrupted while waiting for events
+     */
+    public void run() throws IOException, InterruptedException {
+        try (WatchService watchService = directory.getFileSystem().newWatchService()) {
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            scheduleAll();
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // Events were lost, so every image is checked again as on startup.
+                            scheduleAll();
+                        } else {
+                            schedule(directory.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                dispatchDueFiles();
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Marks every image in the directory to be converted. Unchanged images are skipped by their
+     * content hash once they are dispatched.
+     *
+     * @throws IOException if the directory cannot be listed
+     */
+    private void scheduleAll() throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                schedule(entry);
+            }
+        }
+    }
+
+    /**
+     * Marks an image to be converted once no further events arrive for it within the debounce
+     * interval. Repeated events for the same file push its deadline forward.
+     *
+     * @param file the file an event was received for
+     */
+    private void schedule(Path file) {
+        if (isImage(file)) {
+            pendingDeadlines.put(file, System.currentTimeMillis() + DEBOUNCE_MILLIS);
+        }
+    }
+
+    /**
+     * Sends every file whose debounce interval has passed to the worker pool.
+     * Files still being converted stay pending until their current conversion is done, and files
+     * that do not fit in the pool's queue stay pending until a later call, so the watch thread
+     * never converts images itself and keeps draining events.
+     */
+    private void dispatchDueFiles() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Long>> iterator = pendingDeadlines.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            Path file = entry.getKey();
+            if (entry.getValue() <= now && inFlight.add(file)) {
+                try {
+                    workers.execute(() -> {
+                        try {
+                            convertIfChanged(file);
+                        } finally {
+                            inFlight.remove(file);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.remove(file);
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Converts the given image unless the index records a conversion of the same content with
+     * the same resolution and character set, and records the conversion once it succeeded.
+     *
+     * @param file the image to convert
+     */
+    private void convertIfChanged(Path file) {
+        String key = directory.relativize(file).toString();
+        try {
+            if (!Files.isRegularFile(file)) {
+                return;
+            }
+            String record = ImageDiskCache.hashContent(Files.readAllBytes(file)) + SETTINGS_SEPARATOR
+                    + conversionSettings;
+            synchronized (index) {
+                if (record.equals(index.getProperty(key))) {
+                    return;
+                }
+            }
+            Image image = new Image(file.toString());
+            // Like the shell, fall back to a low resolution for images narrower than requested.
+            int imageResolution = resolution > image.getWidth() ? FALLBACK_RESOLUTION : resolution;
+            if (imageResolution > image.getWidth()) {
+                System.out.println("Did not convert " + key + " due to the image being too small.");
+                return;
+            }
+            AsciiArtAlgorithm asciiArtAlgorithm = new AsciiArtAlgorithm(image, imageResolution, charset);
+            char[][] asciiArt = asciiArtAlgorithm.run();
+            new HtmlAsciiOutput(file + OUTPUT_SUFFIX, FONT_NAME).out(asciiArt);
+            synchronized (index) {
+                index.setProperty(key, record);
+                saveIndex();
+            }
+        } catch (IOException e) {
+            System.out.println("Did not convert " + key + " due to problem with image file.");
+        }
+    }
+
+    /**
+     * Writes the index to a temporary file and moves it over the index file, so a crash while
+     * saving never leaves a truncated index behind. Must be called while holding the index lock.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    private void saveIndex() throws IOException {
+        Path tempFile = indexFile.resolveSibling(INDEX_FILE_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            index.store(out, "Content hashes, resolutions and character sets of converted images");
+        }
+        Files.move(tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean isImage(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package ascii_art;
+
+import image.Image;
+import image.ImagePadding;
+import image.ImageSplitter;
+import image_char_matching.SubImgCharMatcher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The MultiVariantAsciiArtAlgorithm class generates several ASCII art variants of the same image,
+ * each with its own resolution and character set, from a single pass over the pixels.
+ * The image is loaded and padded once, the sub-image brightness is calculated at the finest
+ * requested resolution, and coarser resolutions are derived by aggregating the finer sub-images.
+ */
+public class MultiVariantAsciiArtAlgorithm {
+    private final Image paddedImage;
+    private final List<Integer> resolutions = new ArrayList<>();
+    private final List<SubImgCharMatcher> charMatchers = new ArrayList<>();
+    private final Map<Set<Character>, SubImgCharMatcher> charMatcherCache = new HashMap<>();
+
+    /**
+     * Constructs a MultiVariantAsciiArtAlgorithm for the image at the given path.
+     *
+     * @param imagePath the path to the image file
+     * @throws IOException if there is an error loading the image
+     */
+    public MultiVariantAsciiArtAlgorithm(String imagePath) throws IOException {
+        this(new Image(imagePath));
+    }
+
+    /**
+     * Constructs a MultiVariantAsciiArtAlgorithm for an already loaded image.
+     *
+     * @param image the image to generate the ASCII art variants from
+     */
+    public MultiVariantAsciiArtAlgorithm(Image image) {
+        this.paddedImage = ImagePadding.padImage(image);
+    }
+
+    /**
+     * Adds a variant to be generated by the next call to {@link #run()}.
+     * Variants sharing an equal character set share a single character matcher.
+     *
+     * @param resolution the number of characters per row in the resulting ASCII art
+     * @param charset the character set to use for the ASCII art
+     * @return the index of the variant in the list returned by {@link #run()}
+     */
+    public int addVariant(int resolution, Set<Character> charset) {
+        if (resolution <= 0 || resolution > paddedImage.getWidth()) {
+            throw new IllegalArgumentException("Resolution must be between 1 and the image width.");
+        }
+        SubImgCharMatcher charMatcher = charMatcherCache.computeIfAbsent(
+                new HashSet<>(charset), SubImgCharMatcher::new);
+        resolutions.add(resolution);
+        charMatchers.add(charMatcher);
+        return resolutions.size() - 1;
+    }
+
+    /**
+     * Runs the ASCII art generation algorithm for all the added variants.
+     * The brightness of the sub-images is calculated once at the smallest sub-image size, and
+     * every variant whose sub-image size is a multiple of it reuses that grid. Other variants
+     * fall back to calculating their brightness directly from the padded image.
+     *
+     * @return a list of 2D arrays of characters, one per variant, in the order they were added
+     */
+    public List<char[][]> run() {
+        List<char[][]> variants = new ArrayList<>();
+        if (resolutions.isEmpty()) {
+            return variants;
+        }
+
+        // Step 1: Calculate the brightness at the finest requested resolution
+        int finestSubImageSize = paddedImage.getWidth() / resolutions.stream()
+                .mapToInt(Integer::intValue).max().getAsInt();
+        double[][] finestGrid = ImageSplitter.calculateBrightnessGrid(paddedImage, finestSubImageSize);
+
+        // Step 2: Derive each distinct coarser resolution once
+        Map<Integer, double[][]> gridBySubImageSize = new HashMap<>();
+        gridBySubImageSize.put(finestSubImageSize, finestGrid);
+        for (int resolution : resolutions) {
+            int subImageSize = paddedImage.getWidth() / resolution;
+            gridBySubImageSize.computeIfAbsent(subImageSize, size -> size % finestSubImageSize == 0
+                    ? ImageSplitter.aggregateBrightnessGrid(finestGrid, size / finestSubImageSize)
+                    : ImageSplitter.calculateBrightnessGrid(paddedImage, size));
+        }
+
+        // Step 3: Match every variant against its own character set
+        for (int i = 0; i < resolutions.size(); i++) {
+            double[][] grid = gridBySubImageSize.get(paddedImage.getWidth() / resolutions.get(i));
+            variants.add(AsciiArtAlgorithm.matchChars(grid, charMatchers.get(i)));
+        }
+        return variants;
+    }
+}
@@ -1,15 +1,19 @@
 package ascii_art;
 
 import ascii_art.exceptions.*;
+import ascii_output.ColorHtmlAsciiOutput;
 import ascii_output.ConsoleAsciiOutput;
 import ascii_output.HtmlAsciiOutput;
 import image.Image;
+import image.ImageDiskCache;
 import image_char_matching.SubImgCharMatcher;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The Shell class provides a command-line interface for generating ASCII art from images.
@@ -31,29 +35,43 @@ public class Shell {
     private static final String ASCII_ART_COMMAND = "asciiArt";
     private static final String CONSOLE_OUTPUT = "console";
     private static final String HTML_OUTPUT = "html";
+    private static final String COLOR_OUTPUT = "color";
     private static final String ADD_ALL = "all";
     private static final String ADD_SPACE = "space";
     private static final String RES_UP = "up";
     private static final String RES_DOWN = "down";
     private static final int ASCII_MIN = 32;
     private static final int ASCII_MAX = 126;
+    private static final String CACHE_DIR_PROPERTY = "ascii_art.cache.dir";
+    private static final String CACHE_MAX_BYTES_PROPERTY = "ascii_art.cache.maxBytes";
+    private static final long DEFAULT_CACHE_MAX_BYTES = 256L * 1024 * 1024;
+    private static final long MAX_PREFETCH_BYTES = 64L * 1024 * 1024;
 
     private Image image;
     private int resolution;
     private final SubImgCharMatcher charMatcher;
     private boolean outputToConsole;
+    private boolean outputColor;
     private String imagePath;
+    private final ImageDiskCache imageCache;
+    private final AsciiArtPrefetcher prefetcher;
 
     /**
-     * This class is managing the user interface
+     * This class is managing the user interface.
+     * Decoded images are cached on disk when the ascii_art.cache.dir system property is set.
      * @throws IOException if the default image cannot be loaded.
      */
     public Shell() throws IOException {
-        this.image = new Image(DEFAULT_IMAGE_PATH);
+        String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+        this.imageCache = cacheDir == null ? null : new ImageDiskCache(cacheDir,
+                Long.getLong(CACHE_MAX_BYTES_PROPERTY, DEFAULT_CACHE_MAX_BYTES));
+        this.image = loadImage(DEFAULT_IMAGE_PATH);
         this.imagePath = DEFAULT_IMAGE_PATH;
         this.resolution = DEFAULT_RESOLUTION;
         this.charMatcher = new SubImgCharMatcher(DEFAULT_CHARSET);
         this.outputToConsole = true;
+        this.prefetcher = new AsciiArtPrefetcher(MAX_PREFETCH_BYTES);
+        prefetchNeighbourResolutions();
     }
 
     /**
@@ -122,6 +140,7 @@ public class Shell {
     }
 
     private void processChars(String args, boolean isAdd) throws InvalidCommandException {
+        prefetcher.invalidate();
         if (args.equals(ADD_ALL)) {
             for (char c = ASCII_MIN; c <= ASCII_MAX; c++) {
                 if (isAdd) charMatcher.addChar(c);
@@ -175,7 +194,7 @@ public class Shell {
             System.out.println("Resolution set to " + resolution);
         } else if (args.equals(RES_UP)) {
             int newResolution = resolution * 2;
-            if (newResolution <= image.getWidth()) {
+            if (isWithinUpperBound(newResolution)) {
                 resolution = newResolution;
                 System.out.println("Resolution set to " + resolution);
             } else {
@@ -183,8 +202,7 @@ public class Shell {
             }
         } else if (args.equals(RES_DOWN)) {
             int newResolution = resolution / 2;
-            int minCharsInRow = Math.max(1, image.getWidth() / image.getHeight());
-            if (newResolution >= minCharsInRow) {
+            if (isWithinLowerBound(newResolution)) {
                 resolution = newResolution;
                 System.out.println("Resolution set to " + resolution);
             } else {
@@ -195,27 +213,67 @@ public class Shell {
         }
     }
 
+    private boolean isWithinUpperBound(int newResolution) {
+        return newResolution <= image.getWidth();
+    }
+
+    private boolean isWithinLowerBound(int newResolution) {
+        int minCharsInRow = Math.max(1, image.getWidth() / image.getHeight());
+        return newResolution >= minCharsInRow;
+    }
+
+    /**
+     * Starts generating the ASCII art of the resolutions one step up and one step down in the
+     * background, so that the usual next command returns immediately. Colored output is
+     * generated separately, so nothing is prefetched for it.
+     */
+    private void prefetchNeighbourResolutions() {
+        if (outputColor || charMatcher.getCharset().size() < 2) {
+            return;
+        }
+        Set<Integer> resolutions = new HashSet<>();
+        if (isWithinUpperBound(resolution * 2)) {
+            resolutions.add(resolution * 2);
+        }
+        if (isWithinLowerBound(resolution / 2)) {
+            resolutions.add(resolution / 2);
+        }
+        prefetcher.prefetch(image, charMatcher.getCharset(), resolutions);
+    }
+
     private void changeImage(String imagePath) throws ImageLoadException {
         if (imagePath.isEmpty()) {
             System.out.println("Did not change image method due to incorrect format.");
             return;
         }
         try {
-            image = new Image(imagePath);
+            prefetcher.invalidate();
+            image = loadImage(imagePath);
             this.imagePath = imagePath;
             if (resolution > image.getWidth()) {
                 resolution = 2;
             }
+            prefetchNeighbourResolutions();
         } catch (IOException e) {
             throw new ImageLoadException("Did not execute due to problem with image file.");
         }
     }
 
+    private Image loadImage(String imagePath) throws IOException {
+        return imageCache == null ? new Image(imagePath) : imageCache.load(imagePath);
+    }
+
     private void changeOutput(String output) throws InvalidCommandException {
         if (output.equals(CONSOLE_OUTPUT)) {
             outputToConsole = true;
+            outputColor = false;
         } else if (output.equals(HTML_OUTPUT)) {
             outputToConsole = false;
+            outputColor = false;
+        } else if (output.equals(COLOR_OUTPUT)) {
+            outputToConsole = false;
+            outputColor = true;
+            prefetcher.invalidate();
         } else {
             throw new InvalidCommandException("Did not change output method due to incorrect format.");
         }
@@ -226,18 +284,26 @@ public class Shell {
             throw new InvalidCommandException("Did not execute. Charset is too small.");
         }
 
-        try {
-            AsciiArtAlgorithm asciiArtAlgorithm = new AsciiArtAlgorithm(imagePath, resolution,
+        if (outputColor) {
+            AsciiArtAlgorithm asciiArtAlgorithm = new AsciiArtAlgorithm(image, resolution,
+                    charMatcher.getCharset());
+            ColoredAsciiArt coloredAsciiArt = asciiArtAlgorithm.runColored();
+            new ColorHtmlAsciiOutput("out.html", "Courier New")
+                    .out(coloredAsciiArt.getChars(), coloredAsciiArt.getColors());
+            return;
+        }
+        char[][] asciiArt = prefetcher.take(image, resolution, charMatcher.getCharset());
+        if (asciiArt == null) {
+            AsciiArtAlgorithm asciiArtAlgorithm = new AsciiArtAlgorithm(image, resolution,
                     charMatcher.getCharset());
-            char[][] asciiArt = asciiArtAlgorithm.run();
+            asciiArt = asciiArtAlgorithm.run();
+        }
 
-            if (outputToConsole) {
-                new ConsoleAsciiOutput().out(asciiArt);
-            } else {
-                new HtmlAsciiOutput("out.html", "Courier New").out(asciiArt);
-            }
-        } catch (IOException e) {
-            System.out.println("Error generating ASCII art.");
+        if (outputToConsole) {
+            new ConsoleAsciiOutput().out(asciiArt);
+        } else {
+            new HtmlAsciiOutput("out.html", "Courier New").out(asciiArt);
         }
+        prefetchNeighbourResolutions();
     }
 }
@@ -0,0 +1,158 @@
+package ascii_output;
+
+import image.ColorPalette;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * The ColorHtmlAsciiOutput class writes colored ASCII art to an HTML file.
+ * Colors are quantized to a bounded palette, every palette color used becomes a CSS class, and
+ * horizontal runs of characters sharing a color are merged into a single span. This keeps the
+ * file size and the number of elements the browser lays out far below one styled span per
+ * character.
+ */
+public class ColorHtmlAsciiOutput {
+    private static final String CLASS_PREFIX = "c";
+    private static final int CLASS_NAME_RADIX = 36;
+
+    private final String fileName;
+    private final String fontName;
+    private final int maxColors;
+    private final boolean fixedPalette;
+
+    /**
+     * Constructs a ColorHtmlAsciiOutput that quantizes to the fixed 256-color palette.
+     *
+     * @param fileName the name of the HTML file to write
+     * @param fontName the font to display the ASCII art with
+     */
+    public ColorHtmlAsciiOutput(String fileName, String fontName) {
+        this(fileName, fontName, 0, true);
+    }
+
+    /**
+     * Constructs a ColorHtmlAsciiOutput that quantizes to a median-cut palette built for each
+     * image, of at most maxColors colors.
+     *
+     * @param fileName the name of the HTML file to write
+     * @param fontName the font to display the ASCII art with
+     * @param maxColors the maximal number of colors in the palette, at least 1
+     * @throws IllegalArgumentException if maxColors is not positive
+     */
+    public ColorHtmlAsciiOutput(String fileName, String fontName, int maxColors) {
+        this(fileName, fontName, maxColors, false);
+        if (maxColors <= 0) {
+            throw new IllegalArgumentException("The palette must have at least one color.");
+        }
+    }
+
+    private ColorHtmlAsciiOutput(String fileName, String fontName, int maxColors, boolean fixedPalette) {
+        this.fileName = fileName;
+        this.fontName = fontName;
+        this.maxColors = maxColors;
+        this.fixedPalette = fixedPalette;
+    }
+
+    /**
+     * Writes the colored ASCII art to the HTML file.
+     *
+     * @param chars the characters of the ASCII art
+     * @param colors the RGB value of each character, in the same layout as the characters
+     */
+    public void out(char[][] chars, int[][] colors) {
+        ColorPalette palette = fixedPalette ? ColorPalette.fixed256()
+                : ColorPalette.medianCut(colors, maxColors);
+        int[][] colorIndices = new int[colors.length][];
+        boolean[] usedColors = new boolean[palette.size()];
+        for (int y = 0; y < colors.length; y++) {
+            colorIndices[y] = new int[colors[y].length];
+            for (int x = 0; x < colors[y].length; x++) {
+                colorIndices[y][x] = palette.indexOf(colors[y][x]);
+                usedColors[colorIndices[y][x]] = true;
+            }
+        }
+
+        StringBuilder classRules = new StringBuilder();
+        for (int i = 0; i < usedColors.length; i++) {
+            if (usedColors[i]) {
+                classRules.append('.').append(className(i))
+                        .append(String.format(" { color: #%06x; }\n", palette.getColor(i)));
+            }
+        }
+
+        try (Writer out = new BufferedWriter(new FileWriter(fileName))) {
+            writeHeader(out, fontName, classRules.toString());
+            for (int y = 0; y < chars.length; y++) {
+                writeRow(out, chars[y], colorIndices[y]);
+                out.write('\n');
+            }
+            writeFooter(out);
+        } catch (IOException e) {
+            System.out.println("Error writing the HTML output.");
+        }
+    }
+
+    /**
+     * Writes a row of characters, merging every run of consecutive characters that share a
+     * palette color into a single span.
+     */
+    private static void writeRow(Writer out, char[] row, int[] colorIndices) throws IOException {
+        int x = 0;
+        while (x < row.length) {
+            int colorIndex = colorIndices[x];
+            out.write("<span class=\"" + className(colorIndex) + "\">");
+            while (x < row.length && colorIndices[x] == colorIndex) {
+                writeEscaped(out, row[x++]);
+            }
+            out.write("</span>");
+        }
+    }
+
+    /**
+     * Writes the start of the HTML document, up to and including the opening pre tag.
+     *
+     * @param out the writer of the document
+     * @param fontName the font to display the ASCII art with
+     * @param cssRules additional CSS rules for the document's style sheet
+     * @throws IOException if writing fails
+     */
+    public static void writeHeader(Writer out, String fontName, String cssRules) throws IOException {
+        out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<style>\n");
+        out.write("pre { font-family: '" + fontName + "'; font-size: 8px; line-height: 1; }\n");
+        out.write(cssRules);
+        out.write("</style>\n</head>\n<body>\n<pre>\n");
+    }
+
+    /**
+     * Writes the end of the HTML document, starting with the closing pre tag.
+     *
+     * @param out the writer of the document
+     * @throws IOException if writing fails
+     */
+    public static void writeFooter(Writer out) throws IOException {
+        out.write("</pre>\n</body>\n</html>\n");
+    }
+
+    /**
+     * Writes a character, escaped for use in HTML text.
+     *
+     * @param out the writer of the document
+     * @param c the character to write
+     * @throws IOException if writing fails
+     */
+    public static void writeEscaped(Writer out, char c) throws IOException {
+        switch (c) {
+            case '&' -> out.write("&amp;");
+            case '<' -> out.write("&lt;");
+            case '>' -> out.write("&gt;");
+            default -> out.write(c);
+        }
+    }
+
+    private static String className(int colorIndex) {
+        return CLASS_PREFIX + Integer.toString(colorIndex, CLASS_NAME_RADIX);
+    }
+}
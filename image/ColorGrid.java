@@ -0,0 +1,39 @@
+package image;
+
+/**
+ * The ColorGrid class holds the brightness and the mean color of every sub-image of an image,
+ * in the same row-major layout that the ASCII art is built in.
+ */
+public class ColorGrid {
+    private final double[][] brightness;
+    private final int[][] colors;
+
+    /**
+     * Constructs a ColorGrid from the brightness and the colors of the sub-images.
+     *
+     * @param brightness the normalized brightness of each sub-image, between 0 and 1
+     * @param colors the mean RGB value of each sub-image, in the same layout as the brightness
+     */
+    public ColorGrid(double[][] brightness, int[][] colors) {
+        this.brightness = brightness;
+        this.colors = colors;
+    }
+
+    /**
+     * Gets the brightness of the sub-images.
+     *
+     * @return a 2D array of normalized brightness values
+     */
+    public double[][] getBrightness() {
+        return brightness;
+    }
+
+    /**
+     * Gets the mean colors of the sub-images.
+     *
+     * @return a 2D array of RGB values
+     */
+    public int[][] getColors() {
+        return colors;
+    }
+}
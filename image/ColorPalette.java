@@ -0,0 +1,220 @@
+package image;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ColorPalette class represents a bounded set of colors that arbitrary RGB values are
+ * quantized to. A palette is either the fixed 256-color palette, or is built for a given set of
+ * colors with the median-cut algorithm.
+ */
+public class ColorPalette {
+    private static final int[] CUBE_LEVELS = {0, 51, 102, 153, 204, 255};
+    private static final int GREY_LEVELS = 40;
+    private static final int RED_SHIFT = 16;
+    private static final int GREEN_SHIFT = 8;
+    private static final int CHANNEL_MASK = 0xFF;
+    private static final int RGB_MASK = 0xFFFFFF;
+
+    private final int[] colors;
+    private final Map<Integer, Integer> indexCache = new HashMap<>();
+
+    private ColorPalette(int[] colors) {
+        this.colors = colors;
+    }
+
+    /**
+     * Creates the fixed 256-color palette: a 6x6x6 color cube followed by 40 shades of grey.
+     *
+     * @return the fixed palette
+     */
+    public static ColorPalette fixed256() {
+        int[] colors = new int[CUBE_LEVELS.length * CUBE_LEVELS.length * CUBE_LEVELS.length + GREY_LEVELS];
+        int index = 0;
+        for (int red : CUBE_LEVELS) {
+            for (int green : CUBE_LEVELS) {
+                for (int blue : CUBE_LEVELS) {
+                    colors[index++] = toRgb(red, green, blue);
+                }
+            }
+        }
+        for (int i = 0; i < GREY_LEVELS; i++) {
+            int grey = (i + 1) * 255 / (GREY_LEVELS + 1);
+            colors[index++] = toRgb(grey, grey, grey);
+        }
+        return new ColorPalette(colors);
+    }
+
+    /**
+     * Creates a palette of at most maxColors colors for the given colors with the median-cut
+     * algorithm: the box of colors with the widest channel range is repeatedly split at its
+     * median along that channel, and each final box contributes its mean color.
+     *
+     * @param imageColors the RGB values to build the palette for
+     * @param maxColors the maximal number of colors in the palette
+     * @return the palette, which is empty if there are no colors to build it for
+     */
+    public static ColorPalette medianCut(int[][] imageColors, int maxColors) {
+        Map<Integer, Integer> histogram = new HashMap<>();
+        for (int[] row : imageColors) {
+            for (int rgb : row) {
+                histogram.merge(rgb & RGB_MASK, 1, Integer::sum);
+            }
+        }
+        List<Box> boxes = new ArrayList<>();
+        if (!histogram.isEmpty()) {
+            boxes.add(new Box(histogram.keySet().stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        while (!boxes.isEmpty() && boxes.size() < maxColors) {
+            Box widest = boxes.stream().max(Comparator.comparingInt(box -> box.range)).get();
+            if (widest.range == 0) {
+                break; // Every box holds a single color.
+            }
+            boxes.remove(widest);
+            Integer[] sorted = new Integer[widest.colors.length];
+            for (int i = 0; i < widest.colors.length; i++) {
+                sorted[i] = widest.colors[i];
+            }
+            Arrays.sort(sorted, Comparator.comparingInt(rgb -> channel(rgb, widest.shift)));
+            int median = medianIndex(sorted, histogram);
+            boxes.add(new Box(toIntArray(sorted, 0, median)));
+            boxes.add(new Box(toIntArray(sorted, median, sorted.length)));
+        }
+
+        int[] colors = new int[boxes.size()];
+        for (int i = 0; i < boxes.size(); i++) {
+            colors[i] = meanColor(boxes.get(i).colors, histogram);
+        }
+        return new ColorPalette(colors);
+    }
+
+    /**
+     * Gets the number of colors in the palette.
+     *
+     * @return the palette size
+     */
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * Gets the RGB value of a palette color.
+     *
+     * @param index the index of the palette color
+     * @return the RGB value, without alpha
+     */
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    /**
+     * Gets the index of the palette color closest to the given color.
+     *
+     * @param rgb the RGB value to quantize
+     * @return the index of the closest palette color
+     */
+    public int indexOf(int rgb) {
+        return indexCache.computeIfAbsent(rgb & RGB_MASK, this::findClosest);
+    }
+
+    private int findClosest(int rgb) {
+        int bestIndex = 0;
+        int minDistance = Integer.MAX_VALUE;
+        for (int i = 0; i < colors.length; i++) {
+            int red = channel(rgb, RED_SHIFT) - channel(colors[i], RED_SHIFT);
+            int green = channel(rgb, GREEN_SHIFT) - channel(colors[i], GREEN_SHIFT);
+            int blue = channel(rgb, 0) - channel(colors[i], 0);
+            int distance = red * red + green * green + blue * blue;
+            if (distance < minDistance) {
+                minDistance = distance;
+                bestIndex = i;
+            }
+        }
+        return bestIndex;
+    }
+
+    /**
+     * Finds the split point of a sorted box, so that both halves hold about half of the pixels
+     * and neither half is empty.
+     */
+    private static int medianIndex(Integer[] sorted, Map<Integer, Integer> histogram) {
+        long total = 0;
+        for (int rgb : sorted) {
+            total += histogram.get(rgb);
+        }
+        long count = 0;
+        for (int i = 0; i < sorted.length - 1; i++) {
+            count += histogram.get(sorted[i]);
+            if (count * 2 >= total) {
+                return i + 1;
+            }
+        }
+        return sorted.length - 1;
+    }
+
+    private static int meanColor(int[] box, Map<Integer, Integer> histogram) {
+        long red = 0;
+        long green = 0;
+        long blue = 0;
+        long total = 0;
+        for (int rgb : box) {
+            int count = histogram.get(rgb);
+            red += (long) channel(rgb, RED_SHIFT) * count;
+            green += (long) channel(rgb, GREEN_SHIFT) * count;
+            blue += (long) channel(rgb, 0) * count;
+            total += count;
+        }
+        return toRgb((int) (red / total), (int) (green / total), (int) (blue / total));
+    }
+
+    private static int channelRange(int[] box, int shift) {
+        int min = CHANNEL_MASK;
+        int max = 0;
+        for (int rgb : box) {
+            min = Math.min(min, channel(rgb, shift));
+            max = Math.max(max, channel(rgb, shift));
+        }
+        return max - min;
+    }
+
+    private static int[] toIntArray(Integer[] values, int from, int to) {
+        int[] result = new int[to - from];
+        for (int i = from; i < to; i++) {
+            result[i - from] = values[i];
+        }
+        return result;
+    }
+
+    private static int channel(int rgb, int shift) {
+        return (rgb >> shift) & CHANNEL_MASK;
+    }
+
+    private static int toRgb(int red, int green, int blue) {
+        return (red << RED_SHIFT) | (green << GREEN_SHIFT) | blue;
+    }
+
+    /**
+     * A box of distinct colors in the median-cut algorithm, along with its widest channel.
+     */
+    private static class Box {
+        private final int[] colors;
+        private int shift;
+        private int range = -1;
+
+        private Box(int[] colors) {
+            this.colors = colors;
+            for (int channelShift : new int[]{RED_SHIFT, GREEN_SHIFT, 0}) {
+                int channelRange = channelRange(colors, channelShift);
+                if (channelRange > range) {
+                    shift = channelShift;
+                    range = channelRange;
+                }
+            }
+        }
+    }
+}
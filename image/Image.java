@@ -5,6 +5,7 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.IntBuffer;
 
 // supplied material
 
@@ -14,16 +15,23 @@ import java.io.IOException;
  */
 public class Image {
 
+    private static final int OPAQUE_ALPHA = 0xFF000000;
+
     private final Color[][] pixelArray;
+    private final IntBuffer packedPixels;
     private final int width;
     private final int height;
 
     public Image(String filename) throws IOException {
         BufferedImage im = ImageIO.read(new File(filename));
+        if (im == null) {
+            throw new IOException("Unsupported image format: " + filename);
+        }
         width = im.getWidth();
         height = im.getHeight();
 
 
+        packedPixels = null;
         pixelArray = new Color[height][width];
         for (int i = 0; i < height; i++) {
             for (int j = 0; j < width; j++) {
@@ -34,6 +42,26 @@ public class Image {
 
     public Image(Color[][] pixelArray, int width, int height) {
         this.pixelArray = pixelArray;
+        this.packedPixels = null;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Constructs an image backed by an array of packed RGB pixels, stored row by row.
+     * The array is used as is, without allocating an object per pixel.
+     */
+    public Image(int[] packedPixels, int width, int height) {
+        this(IntBuffer.wrap(packedPixels), width, height);
+    }
+
+    /**
+     * Constructs an image backed by packed RGB pixels, stored row by row.
+     * The buffer is used as is, so it may live off-heap (e.g. a memory-mapped cache file).
+     */
+    Image(IntBuffer packedPixels, int width, int height) {
+        this.pixelArray = null;
+        this.packedPixels = packedPixels;
         this.width = width;
         this.height = height;
     }
@@ -47,17 +75,31 @@ public class Image {
     }
 
     public Color getPixel(int x, int y) {
+        if (packedPixels != null) {
+            return new Color(packedPixels.get(x * width + y));
+        }
         return pixelArray[x][y];
     }
 
+    /**
+     * Returns the packed RGB value of a pixel, with an opaque alpha as in Color.getRGB().
+     * Unlike getPixel, this does not allocate for images backed by packed pixels.
+     */
+    public int getRGB(int x, int y) {
+        if (packedPixels != null) {
+            return packedPixels.get(x * width + y) | OPAQUE_ALPHA;
+        }
+        return pixelArray[x][y].getRGB();
+    }
+
     public void saveImage(String fileName){
-        // Initialize BufferedImage, assuming Color[][] is already properly populated.
-        BufferedImage bufferedImage = new BufferedImage(pixelArray[0].length, pixelArray.length,
+        // Initialize BufferedImage with the dimensions of the image.
+        BufferedImage bufferedImage = new BufferedImage(width, height,
                 BufferedImage.TYPE_INT_RGB);
-        // Set each pixel of the BufferedImage to the color from the Color[][].
-        for (int x = 0; x < pixelArray.length; x++) {
-            for (int y = 0; y < pixelArray[x].length; y++) {
-                bufferedImage.setRGB(y, x, pixelArray[x][y].getRGB());
+        // Set each pixel of the BufferedImage to the color of the image.
+        for (int x = 0; x < height; x++) {
+            for (int y = 0; y < width; y++) {
+                bufferedImage.setRGB(y, x, getPixel(x, y).getRGB());
             }
         }
         File outputfile = new File(fileName+".jpeg");
@@ -0,0 +1,230 @@
+package image;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The ImageDiskCache class stores decoded images on disk as raw packed RGB pixels, keyed by the
+ * content hash of the image file, so that repeated loads skip ImageIO decoding across restarts.
+ * Cached images are memory-mapped and used directly as the backing store of the returned Image.
+ * The cache directory is kept under a size bound by removing the least recently used entries;
+ * images larger than the whole bound are not cached. Failing to write the cache never fails a load.
+ */
+public class ImageDiskCache {
+    private static final String CACHE_FILE_SUFFIX = ".pixels";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    private final Path cacheDirectory;
+    private final long maxCacheBytes;
+
+    /**
+     * Constructs an ImageDiskCache in the given directory, creating it if necessary.
+     *
+     * @param cacheDirectory the directory holding the cached pixel files
+     * @param maxCacheBytes the maximal total size of the cached pixel files
+     * @throws IOException if the cache directory cannot be created
+     */
+    public ImageDiskCache(String cacheDirectory, long maxCacheBytes) throws IOException {
+        this.cacheDirectory = Files.createDirectories(Paths.get(cacheDirectory));
+        this.maxCacheBytes = maxCacheBytes;
+    }
+
+    /**
+     * Loads the image at the given path, from the cache if its content was decoded before,
+     * or by decoding it and adding it to the cache otherwise.
+     *
+     * @param filename the path to the image file
+     * @return the loaded image
+     * @throws IOException if the image cannot be read or decoded
+     */
+    public Image load(String filename) throws IOException {
+        byte[] content = Files.readAllBytes(Paths.get(filename));
+        Path cacheFile = cacheDirectory.resolve(hashContent(content) + CACHE_FILE_SUFFIX);
+
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                Image cached = map(cacheFile);
+                if (cached != null) {
+                    // Touching the entry marks it as recently used for the LRU cleanup.
+                    Files.setLastModifiedTime(cacheFile, FileTime.fromMillis(System.currentTimeMillis()));
+                    return cached;
+                }
+                Files.deleteIfExists(cacheFile);
+            } catch (IOException e) {
+                // An unusable entry is decoded again, like a missing one.
+            }
+        }
+
+        BufferedImage im = ImageIO.read(new ByteArrayInputStream(content));
+        if (im == null) {
+            throw new IOException("Unsupported image format: " + filename);
+        }
+        long entryBytes = HEADER_BYTES + (long) im.getWidth() * im.getHeight() * Integer.BYTES;
+        if (entryBytes > maxCacheBytes) {
+            return toImage(im);
+        }
+        try {
+            store(im, cacheFile);
+            evictLeastRecentlyUsed(cacheFile);
+            Image stored = map(cacheFile);
+            if (stored != null) {
+                return stored;
+            }
+        } catch (IOException e) {
+            // The cache is optional, so the decoded image is used when it cannot be cached.
+        }
+        return toImage(im);
+    }
+
+    /**
+     * Memory-maps a cache file and wraps it in an Image.
+     *
+     * @param cacheFile the cache file to map
+     * @return the mapped image, or null if the file is truncated or corrupt
+     * @throws IOException if the file cannot be mapped
+     */
+    private static Image map(Path cacheFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            if (width <= 0 || height <= 0
+                    || size != HEADER_BYTES + (long) width * height * Integer.BYTES) {
+                return null;
+            }
+            IntBuffer pixels = buffer.slice().order(ByteOrder.BIG_ENDIAN).asIntBuffer();
+            return new Image(pixels, width, height);
+        }
+    }
+
+    /**
+     * Writes a decoded image to a temporary file and moves it into place, so that concurrent
+     * loads never map a partially written cache file.
+     *
+     * @param im the decoded image
+     * @param cacheFile the cache file to write
+     * @throws IOException if the file cannot be written
+     */
+    private static void store(BufferedImage im, Path cacheFile) throws IOException {
+        Path tempFile = Files.createTempFile(cacheFile.getParent(),
+                cacheFile.getFileName().toString(), TEMP_FILE_SUFFIX);
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(im.getWidth());
+                out.writeInt(im.getHeight());
+                int[] row = new int[im.getWidth()];
+                for (int i = 0; i < im.getHeight(); i++) {
+                    im.getRGB(0, i, im.getWidth(), 1, row, 0, im.getWidth());
+                    for (int pixel : row) {
+                        out.writeInt(pixel);
+                    }
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Removes the least recently used cache files until the cache fits in its size bound.
+     * The entry just written is never removed.
+     *
+     * @param newCacheFile the cache file just written
+     * @throws IOException if the cache directory cannot be listed
+     */
+    private void evictLeastRecentlyUsed(Path newCacheFile) throws IOException {
+        List<Path> cacheFiles = new ArrayList<>();
+        long totalBytes = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(cacheDirectory,
+                "*" + CACHE_FILE_SUFFIX)) {
+            for (Path entry : entries) {
+                cacheFiles.add(entry);
+                totalBytes += Files.size(entry);
+            }
+        }
+        cacheFiles.sort(Comparator.comparing(ImageDiskCache::lastModifiedTime));
+        for (Path cacheFile : cacheFiles) {
+            if (totalBytes <= maxCacheBytes) {
+                break;
+            }
+            if (cacheFile.equals(newCacheFile)) {
+                continue;
+            }
+            long size = Files.size(cacheFile);
+            if (Files.deleteIfExists(cacheFile)) {
+                totalBytes -= size;
+            }
+        }
+    }
+
+    private static FileTime lastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * Converts a decoded image to an on-heap Image, used when it could not be kept in the cache.
+     *
+     * @param im the decoded image
+     * @return the image
+     */
+    private static Image toImage(BufferedImage im) {
+        int[] pixels = im.getRGB(0, 0, im.getWidth(), im.getHeight(), null, 0, im.getWidth());
+        return new Image(IntBuffer.wrap(pixels), im.getWidth(), im.getHeight());
+    }
+
+    /**
+     * Calculates the content hash that identifies an image file's content, as used for the
+     * names of the cache files.
+     *
+     * @param content the content of the file
+     * @return the hexadecimal content hash
+     */
+    public static String hashContent(byte[] content) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest(content)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -1,10 +1,13 @@
 package image;
 
 import java.awt.Color;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 
 /**
  * The ImagePadding class provides a method to pad an image with white pixels
  * so that its dimensions are powers of two.
+ * The padded image is backed by packed pixels, so padding does not allocate an object per pixel.
  */
 public class ImagePadding {
 
@@ -21,14 +24,10 @@ public class ImagePadding {
         int newWidth = getNextPowerOfTwo(originalWidth);
         int newHeight = getNextPowerOfTwo(originalHeight);
 
-        Color[][] newPixelArray = new Color[newHeight][newWidth];
+        int[] newPixels = new int[newHeight * newWidth];
 
         // Initialize with white pixels
-        for (int i = 0; i < newHeight; i++) {
-            for (int j = 0; j < newWidth; j++) {
-                newPixelArray[i][j] = Color.WHITE;
-            }
-        }
+        Arrays.fill(newPixels, Color.WHITE.getRGB());
 
         // Copy original pixels to the center of the new image
         int xOffset = (newWidth - originalWidth) / 2;
@@ -36,11 +35,11 @@ public class ImagePadding {
 
         for (int y = 0; y < originalHeight; y++) {
             for (int x = 0; x < originalWidth; x++) {
-                newPixelArray[y + yOffset][x + xOffset] = image.getPixel(y, x);
+                newPixels[(y + yOffset) * newWidth + x + xOffset] = image.getRGB(y, x);
             }
         }
 
-        return new Image(newPixelArray, newWidth, newHeight);
+        return new Image(IntBuffer.wrap(newPixels), newWidth, newHeight);
     }
 
     /**
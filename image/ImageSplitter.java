@@ -62,4 +62,130 @@ public class ImageSplitter {
 
         return totalBrightness / (totalPixels * 255); // Normalized to 0-1
     }
+
+    /**
+     * Calculates the brightness of every sub-image of the specified size directly from the image,
+     * without materializing the sub-images. The grid has one entry per whole sub-image, in the
+     * same row-major layout that the ASCII art is built in.
+     *
+     * @param image the image to calculate the brightness grid for
+     * @param subImageSize the size of each sub-image (each sub-image is subImageSize x subImageSize)
+     * @return a 2D array of normalized brightness values, between 0 and 1
+     */
+    public static double[][] calculateBrightnessGrid(Image image, int subImageSize) {
+        double[][] grid = new double[image.getHeight() / subImageSize][];
+        for (int row = 0; row < grid.length; row++) {
+            grid[row] = calculateBrightnessRow(image, subImageSize, row);
+        }
+        return grid;
+    }
+
+    /**
+     * Calculates the brightness of a single row of sub-images of the specified size, as found in
+     * the grid returned by {@link #calculateBrightnessGrid(Image, int)}.
+     *
+     * @param image the image to calculate the brightness for
+     * @param subImageSize the size of each sub-image (each sub-image is subImageSize x subImageSize)
+     * @param row the index of the row of sub-images
+     * @return an array of normalized brightness values, between 0 and 1
+     */
+    public static double[] calculateBrightnessRow(Image image, int subImageSize, int row) {
+        double[] brightnessRow = new double[image.getWidth() / subImageSize];
+        int totalPixels = subImageSize * subImageSize;
+
+        for (int col = 0; col < brightnessRow.length; col++) {
+            double totalBrightness = 0;
+            for (int i = 0; i < subImageSize; i++) {
+                for (int j = 0; j < subImageSize; j++) {
+                    int rgb = image.getRGB(row * subImageSize + i, col * subImageSize + j);
+                    totalBrightness += red(rgb) * 0.2126 + green(rgb) * 0.7152
+                            + blue(rgb) * 0.0722;
+                }
+            }
+            brightnessRow[col] = totalBrightness / (totalPixels * 255);
+        }
+        return brightnessRow;
+    }
+
+    /**
+     * Calculates the mean color of every sub-image of the specified size, together with its
+     * brightness, in a single pass over the pixels. The brightness values are exactly those
+     * {@link #calculateBrightnessGrid(Image, int)} returns.
+     *
+     * @param image the image to calculate the color grid for
+     * @param subImageSize the size of each sub-image (each sub-image is subImageSize x subImageSize)
+     * @return the brightness and the mean RGB value of each sub-image
+     */
+    public static ColorGrid calculateColorGrid(Image image, int subImageSize) {
+        int rows = image.getHeight() / subImageSize;
+        int cols = image.getWidth() / subImageSize;
+        double[][] brightnessGrid = new double[rows][cols];
+        int[][] colorGrid = new int[rows][cols];
+        int totalPixels = subImageSize * subImageSize;
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                double totalBrightness = 0;
+                long totalRed = 0;
+                long totalGreen = 0;
+                long totalBlue = 0;
+                for (int i = 0; i < subImageSize; i++) {
+                    for (int j = 0; j < subImageSize; j++) {
+                        int rgb = image.getRGB(row * subImageSize + i, col * subImageSize + j);
+                        totalBrightness += red(rgb) * 0.2126 + green(rgb) * 0.7152
+                                + blue(rgb) * 0.0722;
+                        totalRed += red(rgb);
+                        totalGreen += green(rgb);
+                        totalBlue += blue(rgb);
+                    }
+                }
+                brightnessGrid[row][col] = totalBrightness / (totalPixels * 255);
+                colorGrid[row][col] = new Color((int) (totalRed / totalPixels),
+                        (int) (totalGreen / totalPixels), (int) (totalBlue / totalPixels)).getRGB();
+            }
+        }
+        return new ColorGrid(brightnessGrid, colorGrid);
+    }
+
+    /**
+     * Derives a coarser brightness grid from a finer one by averaging each factor x factor block
+     * of cells. Since every cell of the finer grid covers the same number of pixels, the result
+     * equals the brightness computed directly at the coarser sub-image size up to floating-point
+     * rounding, which may flip the matched character of a cell that falls exactly on a tie.
+     *
+     * @param grid the finer brightness grid
+     * @param factor the ratio between the coarser and the finer sub-image sizes
+     * @return the coarser brightness grid
+     */
+    public static double[][] aggregateBrightnessGrid(double[][] grid, int factor) {
+        int rows = grid.length / factor;
+        int cols = rows == 0 ? 0 : grid[0].length / factor;
+        double[][] coarseGrid = new double[rows][cols];
+        int cellsPerBlock = factor * factor;
+
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                double totalBrightness = 0;
+                for (int i = 0; i < factor; i++) {
+                    for (int j = 0; j < factor; j++) {
+                        totalBrightness += grid[row * factor + i][col * factor + j];
+                    }
+                }
+                coarseGrid[row][col] = totalBrightness / cellsPerBlock;
+            }
+        }
+        return coarseGrid;
+    }
+
+    private static int red(int rgb) {
+        return (rgb >> 16) & 0xFF;
+    }
+
+    private static int green(int rgb) {
+        return (rgb >> 8) & 0xFF;
+    }
+
+    private static int blue(int rgb) {
+        return rgb & 0xFF;
+    }
 }